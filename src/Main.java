@@ -2,6 +2,7 @@ import datastructures.FenwickTree;
 import datastructures.RangeOptimizedBIT;
 import datastructures.SegmentTree;
 import utils.DatasetGenerator;
+import utils.ExperimentRunner;
 import utils.PerformanceTester;
 import utils.PerformanceMetrics;
 
@@ -12,6 +13,12 @@ import java.util.ArrayList;
 public class Main {
 
     public static void main(String[] args) {
+        if (args.length > 0) {
+            // Any option switches to the configurable sweep, e.g. --sizes 1e3,1e6 --csv results.csv
+            ExperimentRunner.main(args);
+            return;
+        }
+
         System.out.println("================================================================================");
         System.out.println("DYNAMIC RANGE QUERY DATA STRUCTURES - PERFORMANCE ANALYSIS (Java)");
         System.out.println("================================================================================");
@@ -44,7 +51,7 @@ public class Main {
                 "Data Structure", "Build Time (ms)", "Memory (bytes)", "Point Update (ms)", "Range Query (ms)", "Range Update (ms)");
         System.out.println("-------------------------------------------------------------------------------------------------------------------------");
 
-        String[] structures = {"SegmentTree", "FenwickTree", "RangeOptimizedBIT"};
+        String[] structures = {"SegmentTree", "FenwickTree", "RangeOptimizedBIT", "BAryFenwickTree"};
         for (String name : structures) {
             PerformanceMetrics metrics = comparisonResults.get(name);
             if (metrics != null) {
@@ -61,7 +68,84 @@ public class Main {
         }
         System.out.println("-------------------------------------------------------------------------------------------------------------------------");
 
-        // 4. Summary report
+        // 4. Batched range queries (no interleaved updates): per-query loop vs. both batch strategies,
+        // with batch sizes placed at fixed multiples of the materialization threshold q*2*log2(N)/N
+        double[] batchFactors = {0.5, 1, 2, 3, 4, 6, 8, 12, 16};
+        for (int batchN : new int[]{arraySize, 1_000_000}) {
+            List<Double> batchData = batchN == arraySize ? mainData : generator.generateUniformRandom(batchN);
+            int logN = 32 - Integer.numberOfLeadingZeros(batchN);
+            int[] batchSizes = new int[batchFactors.length];
+            for (int i = 0; i < batchFactors.length; i++) {
+                batchSizes[i] = (int) Math.ceil(batchFactors[i] * batchN / (2.0 * logN));
+            }
+            System.out.println("\n4. Batched Range Queries vs. Per-Query Calls (N = " + batchN + ", best of interleaved runs)");
+            System.out.println("-------------------------------------------------------------------------------------------------");
+            System.out.printf("%-20s | %-10s | %-8s | %-12s | %-12s | %-12s | %-12s\n",
+                    "Data Structure", "Batch Size", "Factor", "Loop (ms)", "Walk (ms)", "Prefix (ms)", "Best Speedup");
+            System.out.println("-------------------------------------------------------------------------------------------------");
+
+            Map<String, Map<Integer, double[]>> batchResults = tester.compareBatchQueries(batchData, batchSizes);
+            for (Map.Entry<String, Map<Integer, double[]>> entry : batchResults.entrySet()) {
+                for (Map.Entry<Integer, double[]> row : entry.getValue().entrySet()) {
+                    double[] times = row.getValue();
+                    double batchMs = Math.min(times[1], times[2]);
+                    System.out.printf("%-20s | %-10d | %-8.2f | %-12.5f | %-12.5f | %-12.5f | %-12.2f\n",
+                            entry.getKey(), row.getKey(), 2.0 * logN * row.getKey() / batchN,
+                            times[0], times[1], times[2], times[0] / batchMs);
+                }
+            }
+            System.out.println("-------------------------------------------------------------------------------------------------");
+            for (Map.Entry<String, Map<Integer, double[]>> entry : batchResults.entrySet()) {
+                // Smallest batch size from which the prefix array stays faster than tree walks for every larger size
+                String crossover = "none up to factor " + batchFactors[batchFactors.length - 1];
+                for (int i = batchSizes.length - 1; i >= 0; i--) {
+                    double[] times = entry.getValue().get(batchSizes[i]);
+                    if (times[2] >= times[1]) break;
+                    crossover = String.format("prefix faster than tree walks from q = %d (factor %.2f)",
+                            batchSizes[i], 2.0 * logN * batchSizes[i] / batchN);
+                }
+                System.out.printf("   %-20s crossover: %s\n", entry.getKey(), crossover);
+            }
+        }
+
+        // 5. Asynchronous coalescing update pipeline vs. direct calls
+        int producers = 4;
+        int updatesPerProducer = 250_000;
+        System.out.println("\n5. Update Pipeline vs. Direct Calls (" + producers + " writers x " + updatesPerProducer + " updates, hot-key bursts)");
+        System.out.println("-------------------------------------------------------------------------------------------------------");
+        System.out.printf("%-20s | %-18s | %-18s | %-18s | %-18s\n",
+                "Data Structure", "Direct (ops/s)", "Pipeline (ops/s)", "Direct Lat. (ns)", "Pipeline Lat. (ns)");
+        System.out.println("-------------------------------------------------------------------------------------------------------");
+
+        Map<String, Map<String, Double>> pipelineResults = tester.compareUpdatePipeline(mainData, producers, updatesPerProducer);
+        for (Map.Entry<String, Map<String, Double>> entry : pipelineResults.entrySet()) {
+            Map<String, Double> m = entry.getValue();
+            System.out.printf("%-20s | %-18.0f | %-18.0f | %-18.1f | %-18.1f\n", entry.getKey(),
+                    m.get("direct_ops_per_sec"), m.get("pipeline_ops_per_sec"),
+                    m.get("direct_latency_ns"), m.get("pipeline_latency_ns"));
+        }
+        System.out.println("-------------------------------------------------------------------------------------------------------");
+
+        // 6. Streaming sliding-window ingest
+        int streamSamples = 5_000_000;
+        System.out.println("\n6. Sliding-Window Streaming Ingest (best of repeated runs of " + streamSamples + " samples; window sum of newest W/2 every 16 appends)");
+        System.out.println("--------------------------------------------------------------------------------");
+        System.out.printf("%-12s | %-20s | %-15s | %-28s\n", "Window W", "Ingest (samples/s)", "ns / append", "Ingest w/ queries (samples/s)");
+        System.out.println("--------------------------------------------------------------------------------");
+        tester.checkStreamingWindowRecovery();
+        int[] windows = {1_000, 100_000, 10_000_000};
+        for (int window : windows) {
+            // Warm up every size first, so no size is measured on code compiled for the ones before it
+            tester.benchmarkStreamingWindow(window, streamSamples / 10, 16);
+        }
+        for (int window : windows) {
+            Map<String, Double> stream = tester.benchmarkStreamingWindow(window, streamSamples, 16);
+            System.out.printf("%-12d | %-20.0f | %-15.1f | %-28.0f\n", window,
+                    stream.get("ingest_per_sec"), stream.get("ns_per_append"), stream.get("ingest_with_queries_per_sec"));
+        }
+        System.out.println("--------------------------------------------------------------------------------");
+
+        // 7. Summary report
         System.out.println("\n" + "================================================================================");
         System.out.println("EXPERIMENT SUMMARY (Conceptual)");
         System.out.println("================================================================================");
@@ -85,6 +169,12 @@ public class Main {
         System.out.println("   - Memory: 2N+2 elements (two Fenwick Trees)");
         System.out.println("   - Features: Supports both range updates and range queries, offering a middle ground in memory and complexity between the others.");
 
+        System.out.println("\n4. B-ary Fenwick Tree:");
+        System.out.println("   - Build Time: O(N)");
+        System.out.println("   - Operations (Query/Update): O(log_B N) levels; a query reads one entry per level, an update adds across one cache line per level");
+        System.out.println("   - Memory: ~N * B/(B-1) elements");
+        System.out.println("   - Features: Point updates and range sums with far fewer dependent loads at large N. No range updates.");
+
         System.out.println("\n================================================================================");
     }
 }
\ No newline at end of file
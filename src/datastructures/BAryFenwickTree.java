@@ -0,0 +1,160 @@
+package datastructures;
+
+import java.util.List;
+
+/**
+ * Wide fan-out (B-ary) range-sum index with the same add/prefixSum API as FenwickTree.
+ *
+ * Level 0 covers the elements and level k covers the block totals of level k-1, so depth is
+ * log_B(N) instead of log_2(N): with B = 8 a block is 64 bytes (one cache line) and N = 1e8 needs
+ * 9 levels instead of 27. Every entry stores the running sum of its own block up to and including
+ * itself, so a prefix sum is one load per level, and those loads do not depend on each other.
+ * An update adds delta to the tail of one block per level with a fixed-length, branch-free loop.
+ */
+public class BAryFenwickTree {
+    public static final int DEFAULT_FANOUT = 8; // 8 doubles = 64 bytes = one cache line
+
+    private final int n;
+    private final int shift; // log2(fanout)
+    private final int mask;  // fanout - 1
+    private final int levels;
+    private final int[] offsets; // start of each level in tree
+    private final double[] tree; // all levels back to back, each padded to a multiple of fanout
+
+    public BAryFenwickTree(int n) {
+        this(n, DEFAULT_FANOUT);
+    }
+
+    public BAryFenwickTree(int n, int fanout) {
+        if (fanout < 2 || Integer.bitCount(fanout) != 1) {
+            throw new IllegalArgumentException("fanout must be a power of two >= 2, got " + fanout);
+        }
+        this.n = n;
+        this.shift = Integer.numberOfTrailingZeros(fanout);
+        this.mask = fanout - 1;
+
+        // Count levels until one block holds the whole level.
+        int count = n;
+        int numLevels = 1;
+        while (count > fanout) {
+            count = (count + mask) >> shift;
+            numLevels++;
+        }
+        this.levels = numLevels;
+        this.offsets = new int[numLevels];
+
+        long total = 0;
+        count = n;
+        for (int k = 0; k < numLevels; k++) {
+            offsets[k] = (int) total;
+            total += (long) ((count + mask) >> shift) << shift;
+            count = (count + mask) >> shift;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many elements for a B-ary index: " + n);
+        }
+        this.tree = new double[(int) total];
+    }
+
+    /**
+     * O(n) construction: sum each block into the level above, then turn each block into running sums.
+     */
+    public static BAryFenwickTree fromArray(List<Double> arr) {
+        return fromArray(arr, DEFAULT_FANOUT);
+    }
+
+    public static BAryFenwickTree fromArray(List<Double> arr, int fanout) {
+        int n = arr.size();
+        BAryFenwickTree index = new BAryFenwickTree(n, fanout);
+        double[] tree = index.tree;
+        int mask = index.mask;
+
+        for (int i = 0; i < n; i++) {
+            tree[i] = arr.get(i);
+        }
+
+        int count = n;
+        for (int k = 0; k < index.levels; k++) {
+            int here = index.offsets[k];
+            int blocks = (count + mask) >> index.shift;
+            for (int b = 0; b < blocks; b++) {
+                int start = here + (b << index.shift);
+                for (int c = 1; c <= mask; c++) {
+                    tree[start + c] += tree[start + c - 1]; // padding slots are zero
+                }
+                if (k + 1 < index.levels) {
+                    tree[index.offsets[k + 1] + b] = tree[start + mask]; // block total
+                }
+            }
+            count = blocks;
+        }
+        return index;
+    }
+
+    /**
+     * Add delta to element at index idx (0-based).
+     */
+    public void update(int idx, double delta) {
+        if (idx < 0 || idx >= n) return;
+        for (int k = 0; k < levels; k++) {
+            int block = offsets[k] + (idx & ~mask);
+            int pos = idx & mask;
+            // Every running sum from pos to the end of the block grows by delta.
+            for (int c = 0; c <= mask; c++) {
+                tree[block + c] += c >= pos ? delta : 0.0;
+            }
+            idx >>= shift;
+        }
+    }
+
+    /**
+     * Get sum of elements from index 0 to idx inclusive (0-based).
+     */
+    public double prefixSum(int idx) {
+        idx = Math.min(idx, n - 1); // Bound check
+        if (idx < 0) return 0;
+        // Level 0 contributes the running sum of idx's block; every level above contributes the
+        // running sum of the blocks before the current one. The top level is a single block.
+        double result = tree[idx];
+        int end = idx >> shift; // blocks fully before idx at the current level
+        for (int k = 1; k < levels; k++) {
+            int before = k + 1 < levels ? end & mask : end;
+            if (before > 0) {
+                result += tree[offsets[k] + end - 1];
+            }
+            end >>= shift;
+        }
+        return result;
+    }
+
+    /**
+     * Get sum of elements in range [l, r] (0-based).
+     */
+    public double rangeSum(int l, int r) {
+        if (l > r || r < 0 || l >= n) return 0;
+        if (l <= 0) return prefixSum(r);
+        return prefixSum(r) - prefixSum(l - 1);
+    }
+
+    /**
+     * Set the element at idx to a new value (0-based).
+     */
+    public void pointUpdate(int idx, double newValue) {
+        if (idx < 0 || idx >= n) return;
+        double currentValue = (idx & mask) == 0 ? tree[idx] : tree[idx] - tree[idx - 1];
+        update(idx, newValue - currentValue);
+    }
+
+    public int getFanout() {
+        return mask + 1;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public long getMemoryUsage() {
+        // All levels (doubles * 8 bytes) plus the level offsets
+        return (long) tree.length * 8 + (long) offsets.length * 4;
+    }
+}
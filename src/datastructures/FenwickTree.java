@@ -23,15 +23,36 @@ public class FenwickTree {
         for (int i = 0; i < n; i++) {
             fenwick.tree[i + 1] = arr.get(i);
         }
+        fenwick.cascade();
+        return fenwick;
+    }
+
+    /**
+     * O(n) construction from a primitive array, without boxing.
+     */
+    public static FenwickTree fromArray(double[] arr) {
+        FenwickTree fenwick = new FenwickTree(arr.length);
+        System.arraycopy(arr, 0, fenwick.tree, 1, arr.length);
+        fenwick.cascade();
+        return fenwick;
+    }
 
-        // Build tree in O(n) by cascading values upward
+    /**
+     * Rebuild in place from values (length n) in O(n), discarding rounding error accumulated by updates.
+     */
+    void rebuild(double[] values) {
+        System.arraycopy(values, 0, tree, 1, n);
+        cascade();
+    }
+
+    // Build tree in O(n) by cascading values upward
+    private void cascade() {
         for (int i = 1; i <= n; i++) {
             int parentIdx = i + (i & -i);
             if (parentIdx <= n) {
-                fenwick.tree[parentIdx] += fenwick.tree[i];
+                tree[parentIdx] += tree[i];
             }
         }
-        return fenwick;
     }
 
     /**
@@ -90,6 +111,42 @@ public class FenwickTree {
         update(idx, delta);
     }
 
+    /**
+     * Answer many range sums [l[i], r[i]] (0-based) at once, assuming no updates in between.
+     * Large batches materialize a flat prefix array in O(n); big batches run in parallel.
+     */
+    public double[] rangeSumBatch(int[] l, int[] r) {
+        return rangeSumBatch(l, r, RangeBatch.shouldMaterialize(n, l.length, RangeBatch.FENWICK_FACTOR));
+    }
+
+    /**
+     * rangeSumBatch with the strategy fixed by the caller: materialize the prefix array, or walk
+     * the tree once per query. For measuring the crossover between the two.
+     */
+    public double[] rangeSumBatch(int[] l, int[] r, boolean materialize) {
+        RangeBatch.checkBounds(l, r);
+        if (materialize) {
+            return RangeBatch.fromPrefix(prefixSums(), l, r);
+        }
+        return RangeBatch.answer(l.length, i -> rangeSum(l[i], r[i]));
+    }
+
+    /**
+     * O(n) flat prefix array: result[i] = sum of elements [0, i-1], result[0] = 0.
+     */
+    double[] prefixSums() {
+        double[] prefix = new double[n + 1];
+        // tree[i] covers (i - lowbit(i), i], so each prefix extends an already computed one.
+        for (int i = 1; i <= n; i++) {
+            prefix[i] = prefix[i - (i & -i)] + tree[i];
+        }
+        return prefix;
+    }
+
+    public int size() {
+        return n;
+    }
+
     public long getMemoryUsage() {
         // Return size of the tree array (doubles * 8 bytes)
         return (long) (n + 1) * 8;
@@ -0,0 +1,71 @@
+package datastructures;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Shared helpers for answering a batch of range queries with no interleaved updates.
+ */
+final class RangeBatch {
+    // Below this many queries the fork/join overhead outweighs the parallel speedup.
+    // Parallel streams are only used when the common pool has more than one worker.
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    // A flat prefix array costs ~n sequential adds; a tree walk costs ~2*log2(n) dependent loads.
+    // Materialize once the walks would touch <factor> times more cells than the scan. The factors
+    // come from the walk-vs-prefix crossover in Main, section 4 (q*2*log2(n)/n at n = 1e4 .. 1e6):
+    // the recursive segment-tree walk loses from about 1-2, a Fenwick walk from 2-6, and the
+    // range-update BIT, which walks two trees per query, from 3-6. Larger n crosses earlier.
+    static final int SEGMENT_TREE_FACTOR = 2;
+    static final int FENWICK_FACTOR = 4;
+    static final int RANGE_BIT_FACTOR = 5;
+
+    private RangeBatch() {}
+
+    static void checkBounds(int[] l, int[] r) {
+        if (l.length != r.length) {
+            throw new IllegalArgumentException("l and r must have the same length");
+        }
+    }
+
+    /**
+     * True when building an O(n) prefix array is cheaper than q independent tree walks,
+     * given the structure's measured crossover factor.
+     */
+    static boolean shouldMaterialize(int n, int q, int factor) {
+        if (n == 0) return false;
+        int logN = 32 - Integer.numberOfLeadingZeros(n);
+        return (long) q * 2 * logN >= (long) n * factor;
+    }
+
+    /**
+     * Answer every query with the given per-query function, in parallel for large batches.
+     */
+    static double[] answer(int q, IntToDoubleFunction query) {
+        double[] result = new double[q];
+        if (q >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            IntStream.range(0, q).parallel().forEach(i -> result[i] = query.applyAsDouble(i));
+        } else {
+            for (int i = 0; i < q; i++) {
+                result[i] = query.applyAsDouble(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Answer queries from a flat prefix array where prefix[i + 1] = sum[0..i] and prefix[0] = 0.
+     * Clamps endpoints the same way as the structures' own range queries.
+     */
+    static double[] fromPrefix(double[] prefix, int[] l, int[] r) {
+        int n = prefix.length - 1;
+        return answer(l.length, i -> {
+            int lo = l[i], hi = r[i];
+            if (lo > hi || hi < 0 || lo >= n) return 0;
+            if (lo < 0) lo = 0;
+            if (hi >= n) hi = n - 1;
+            return prefix[hi + 1] - prefix[lo];
+        });
+    }
+}
@@ -30,9 +30,7 @@ public class RangeOptimizedBIT {
         }
 
         // Build tree1 from difference array using the FenwickTree O(N) builder.
-        List<Double> diffList = new java.util.ArrayList<>(n);
-        for (int i = 0; i < n; i++) diffList.add(diff[i]);
-        robit.tree1 = FenwickTree.fromArray(diffList);
+        robit.tree1 = FenwickTree.fromArray(diff);
 
         // Tree2 remains initialized to zero.
 
@@ -102,6 +100,43 @@ public class RangeOptimizedBIT {
         rangeUpdate(idx, idx, delta); // A point update is a range update of size 1
     }
 
+    /**
+     * Answer many range sums [l[i], r[i]] (0-based) at once, assuming no updates in between.
+     * Large batches materialize a flat prefix array in O(n); big batches run in parallel.
+     */
+    public double[] rangeSumBatch(int[] l, int[] r) {
+        return rangeSumBatch(l, r, RangeBatch.shouldMaterialize(n, l.length, RangeBatch.RANGE_BIT_FACTOR));
+    }
+
+    /**
+     * rangeSumBatch with the strategy fixed by the caller: materialize the prefix array, or walk
+     * the tree once per query. For measuring the crossover between the two.
+     */
+    public double[] rangeSumBatch(int[] l, int[] r, boolean materialize) {
+        RangeBatch.checkBounds(l, r);
+        if (materialize) {
+            return RangeBatch.fromPrefix(prefixSums(), l, r);
+        }
+        return RangeBatch.answer(l.length, i -> rangeSum(l[i], r[i]));
+    }
+
+    /**
+     * O(n) flat prefix array: result[i] = sum of elements [0, i-1], result[0] = 0.
+     */
+    double[] prefixSums() {
+        double[] p1 = tree1.prefixSums();
+        double[] p2 = tree2.prefixSums();
+        double[] prefix = new double[n + 1];
+        for (int i = 1; i <= n; i++) {
+            prefix[i] = p1[i] * i - p2[i];
+        }
+        return prefix;
+    }
+
+    public int size() {
+        return n;
+    }
+
     public long getMemoryUsage() {
         // Two Fenwick Trees
         return tree1.getMemoryUsage() + tree2.getMemoryUsage();
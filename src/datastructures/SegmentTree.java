@@ -158,6 +158,57 @@ public class SegmentTree {
         return leftSum + rightSum;
     }
 
+    /**
+     * Answer many range queries [l[i], r[i]] at once, assuming no updates in between.
+     * Large batches push all lazy values to the leaves and answer from a flat prefix array.
+     */
+    public double[] rangeQueryBatch(int[] l, int[] r) {
+        return rangeQueryBatch(l, r, RangeBatch.shouldMaterialize(n, l.length, RangeBatch.SEGMENT_TREE_FACTOR));
+    }
+
+    /**
+     * rangeQueryBatch with the strategy fixed by the caller: materialize the prefix array, or walk
+     * the tree once per query. For measuring the crossover between the two.
+     */
+    public double[] rangeQueryBatch(int[] l, int[] r, boolean materialize) {
+        RangeBatch.checkBounds(l, r);
+        int q = l.length;
+        if (materialize) {
+            double[] prefix = new double[n + 1];
+            _collectLeaves(0, 0, n - 1, prefix);
+            for (int i = 1; i <= n; i++) {
+                prefix[i] += prefix[i - 1];
+            }
+            return RangeBatch.fromPrefix(prefix, l, r);
+        }
+        // rangeQuery pushes lazy values down, so walks must stay on one thread.
+        double[] result = new double[q];
+        for (int i = 0; i < q; i++) {
+            result[i] = rangeQuery(l[i], r[i]);
+        }
+        return result;
+    }
+
+    // Writes leaf i into out[i + 1], flushing pending lazy values on the way.
+    private void _collectLeaves(int node, int start, int end, double[] out) {
+        if (node >= treeSize) return;
+
+        pushDown(node, start, end);
+
+        if (start == end) {
+            out[start + 1] = tree[node];
+            return;
+        }
+
+        int mid = (start + end) / 2;
+        _collectLeaves(2 * node + 1, start, mid, out);
+        _collectLeaves(2 * node + 2, mid + 1, end, out);
+    }
+
+    public int size() {
+        return n;
+    }
+
     public long getMemoryUsage() {
         // tree array + lazy array (doubles * 8 bytes)
         return (long) treeSize * 8 * 2;
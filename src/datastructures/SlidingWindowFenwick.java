@@ -0,0 +1,139 @@
+package datastructures;
+
+/**
+ * Range sums over the last W samples of a stream, on a circular FenwickTree of W slots.
+ *
+ * Samples occupy slots head, head+1, ... (mod W). Appending writes the next free slot, or
+ * overwrites the oldest slot in place when the window is full; expiring subtracts the oldest slot.
+ * Each is a single O(log W) FenwickTree update. Queries take window-relative indices (0 = oldest
+ * sample still in the window) and split into at most two physical ranges when the window wraps.
+ *
+ * Incremental updates leave rounding error in the tree nodes, and one huge sample would swamp
+ * every small one sharing its nodes long after it expired. So once per W appends the tree is
+ * rebuilt in place from the raw samples in O(W): O(1) amortized, no allocation, and error never
+ * outlives one window.
+ */
+public class SlidingWindowFenwick {
+    private final int capacity;
+    private final FenwickTree tree;
+    private final double[] values; // raw sample per slot, so expiry knows what to subtract
+    private int head; // physical slot of the oldest sample
+    private int size;
+    private long appended;
+    private int sinceRebuild; // appends since the tree was last rebuilt from values
+
+    public SlidingWindowFenwick(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.tree = new FenwickTree(capacity);
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Add a new sample at the end of the window, replacing the oldest one if the window is full.
+     */
+    public void append(double value) {
+        if (size == capacity) {
+            // The oldest slot becomes the newest: one tree walk swaps its value in place.
+            tree.update(head, value - values[head]);
+            values[head] = value;
+            head = head + 1 == capacity ? 0 : head + 1;
+        } else {
+            int slot = physical(size);
+            values[slot] = value;
+            tree.update(slot, value); // slot is zero after expiry
+            size++;
+        }
+        appended++;
+        if (++sinceRebuild == capacity) {
+            tree.rebuild(values); // expired slots hold 0, so values is exactly the window
+            sinceRebuild = 0;
+        }
+    }
+
+    /**
+     * Drop the oldest sample. Returns false if the window is empty.
+     */
+    public boolean expire() {
+        if (size == 0) return false;
+        tree.update(head, -values[head]);
+        values[head] = 0;
+        head = head + 1 == capacity ? 0 : head + 1;
+        size--;
+        return true;
+    }
+
+    /**
+     * Drop the oldest samples until at most maxSize remain (e.g. for a time-based window).
+     */
+    public void expireTo(int maxSize) {
+        while (size > Math.max(maxSize, 0)) {
+            expire();
+        }
+    }
+
+    /**
+     * Sum of window positions [l, r], where 0 is the oldest sample and size()-1 the newest.
+     */
+    public double rangeSum(int l, int r) {
+        if (l < 0) l = 0;
+        if (r >= size) r = size - 1;
+        if (l > r) return 0;
+        int pl = physical(l);
+        int pr = physical(r);
+        if (pl <= pr) return tree.rangeSum(pl, pr);
+        // Wrapped: [pl, capacity-1] then [0, pr]
+        return tree.rangeSum(pl, capacity - 1) + tree.prefixSum(pr);
+    }
+
+    /**
+     * Sum of the newest k samples.
+     */
+    public double latestSum(int k) {
+        return rangeSum(size - k, size - 1);
+    }
+
+    /**
+     * Sum of every sample currently in the window.
+     */
+    public double windowSum() {
+        return rangeSum(0, size - 1);
+    }
+
+    /**
+     * Sample at window position i (0 = oldest).
+     */
+    public double get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Window index " + i + " out of range [0, " + size + ")");
+        }
+        return values[physical(i)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Total number of samples appended since construction, including expired ones.
+     */
+    public long appendedCount() {
+        return appended;
+    }
+
+    private int physical(int windowIdx) {
+        int slot = head + windowIdx;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+
+    public long getMemoryUsage() {
+        // Fenwick tree plus the raw sample ring (doubles * 8 bytes)
+        return tree.getMemoryUsage() + (long) capacity * 8;
+    }
+}
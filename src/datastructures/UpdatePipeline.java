@@ -0,0 +1,384 @@
+package datastructures;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous update pipeline in front of a range-sum structure.
+ *
+ * Any number of writer threads submit add / range-add commands into a bounded lock-free ring
+ * buffer. A single applier thread drains it in batches, merges commands that hit the same index
+ * or the same [l, r] range into one, and applies the merged batch to the structure. Writers only
+ * pay for a slot claim and never wait on the structure unless the buffer is full.
+ *
+ * Use flush() for a barrier and read() to query with read-your-writes. Never query the wrapped
+ * structure directly while the pipeline is open: the applier may be modifying it.
+ *
+ * An idle applier parks without a timeout and the next producer to publish wakes it, so an open
+ * pipeline with no traffic costs no CPU. A submit racing close() is either applied by the final
+ * drain or throws IllegalStateException; it is never dropped silently.
+ */
+public class UpdatePipeline implements AutoCloseable {
+
+    /**
+     * The update operations the pipeline forwards to a structure.
+     */
+    public interface Target {
+        void add(int idx, double delta);
+
+        void rangeAdd(int l, int r, double delta);
+
+        boolean supportsRangeAdd();
+
+        /**
+         * Number of elements; commands outside [0, size) are rejected at submit time.
+         */
+        int size();
+    }
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final Target target;
+    private final Object applyLock = new Object();
+
+    // Ring buffer: slot i is writable by ticket t when sequence[i] == t, readable when it is t + 1.
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final int[] left;
+    private final int[] right;
+    private final double[] deltas;
+    private final AtomicLong tail = new AtomicLong(); // next ticket to hand to a producer
+    private final AtomicLong applied = new AtomicLong(); // tickets below this are applied
+    private long head; // applier thread only
+
+    // Coalescing table, applier thread only: open addressing keyed by (l, r), reset per batch by epoch.
+    private final int batchSize;
+    private final long[] keys;
+    private final double[] sums;
+    private final int[] epochs;
+    private final int[] used;
+    private int epoch;
+
+    private final Thread applier;
+    private volatile boolean closed;
+    private volatile boolean sleeping; // applier is parked, or about to park, waiting for a command
+    private volatile Throwable failure; // set if applying a batch threw; the applier then stops
+
+    public UpdatePipeline(Target target) {
+        this(target, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    public UpdatePipeline(Target target, int capacity, int batchSize) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 2, got " + capacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive, got " + batchSize);
+        }
+        this.target = target;
+        this.mask = capacity - 1;
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequence.set(i, i);
+        }
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.deltas = new double[capacity];
+
+        this.batchSize = batchSize;
+        int tableSize = Integer.highestOneBit(batchSize) << 2; // load factor <= 0.5
+        this.keys = new long[tableSize];
+        this.sums = new double[tableSize];
+        this.epochs = new int[tableSize];
+        this.used = new int[batchSize];
+
+        this.applier = new Thread(this::applyLoop, "update-pipeline-applier");
+        this.applier.setDaemon(true);
+        this.applier.start();
+    }
+
+    public static UpdatePipeline of(FenwickTree ft) {
+        return new UpdatePipeline(target(ft));
+    }
+
+    public static UpdatePipeline of(BAryFenwickTree bft) {
+        return new UpdatePipeline(target(bft));
+    }
+
+    public static UpdatePipeline of(RangeOptimizedBIT robit) {
+        return new UpdatePipeline(target(robit));
+    }
+
+    public static UpdatePipeline of(SegmentTree st) {
+        return new UpdatePipeline(target(st));
+    }
+
+    public static Target target(FenwickTree ft) {
+        return new Target() {
+            public void add(int idx, double delta) { ft.update(idx, delta); }
+            public void rangeAdd(int l, int r, double delta) { throw new UnsupportedOperationException(); }
+            public boolean supportsRangeAdd() { return false; }
+            public int size() { return ft.size(); }
+        };
+    }
+
+    public static Target target(BAryFenwickTree bft) {
+        return new Target() {
+            public void add(int idx, double delta) { bft.update(idx, delta); }
+            public void rangeAdd(int l, int r, double delta) { throw new UnsupportedOperationException(); }
+            public boolean supportsRangeAdd() { return false; }
+            public int size() { return bft.size(); }
+        };
+    }
+
+    public static Target target(RangeOptimizedBIT robit) {
+        return new Target() {
+            public void add(int idx, double delta) { robit.rangeUpdate(idx, idx, delta); }
+            public void rangeAdd(int l, int r, double delta) { robit.rangeUpdate(l, r, delta); }
+            public boolean supportsRangeAdd() { return true; }
+            public int size() { return robit.size(); }
+        };
+    }
+
+    public static Target target(SegmentTree st) {
+        return new Target() {
+            public void add(int idx, double delta) { st.rangeUpdate(idx, idx, delta); }
+            public void rangeAdd(int l, int r, double delta) { st.rangeUpdate(l, r, delta); }
+            public boolean supportsRangeAdd() { return true; }
+            public int size() { return st.size(); }
+        };
+    }
+
+    // --- Producer side ---
+
+    /**
+     * Queue delta to be added to element idx (0-based).
+     */
+    public void add(int idx, double delta) {
+        checkRange(idx, idx);
+        publish(idx, idx, delta);
+    }
+
+    /**
+     * Queue delta to be added to every element in [l, r] (0-based).
+     */
+    public void rangeAdd(int l, int r, double delta) {
+        if (l != r && !target.supportsRangeAdd()) {
+            throw new UnsupportedOperationException("Target structure does not support range updates");
+        }
+        checkRange(l, r);
+        publish(l, r, delta);
+    }
+
+    // Reject bad indices here: on the applier thread they would fail the whole batch, or loop forever.
+    private void checkRange(int l, int r) {
+        if (l < 0 || r >= target.size() || l > r) {
+            throw new IndexOutOfBoundsException("Range [" + l + ", " + r + "] outside [0, " + target.size() + ")");
+        }
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Applier thread failed", cause);
+        }
+    }
+
+    private void publish(int l, int r, double delta) {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Pipeline is closed");
+        }
+        long ticket;
+        int slot;
+        while (true) {
+            ticket = tail.get();
+            slot = (int) ticket & mask;
+            long diff = sequence.get(slot) - ticket;
+            if (diff == 0) {
+                if (tail.compareAndSet(ticket, ticket + 1)) break;
+            } else if (diff < 0) {
+                // Buffer full: back-pressure until the applier frees this slot.
+                checkFailure();
+                if (closed) {
+                    // the applier stops draining after close, so this slot would never free up
+                    throw new IllegalStateException("Pipeline is closed");
+                }
+                LockSupport.unpark(applier);
+                Thread.yield();
+            }
+            // diff > 0: another producer took this ticket, retry with a fresh tail
+        }
+        left[slot] = l;
+        right[slot] = r;
+        deltas[slot] = delta;
+        sequence.set(slot, ticket + 1); // volatile write publishes the fields above
+        if (sleeping) {
+            LockSupport.unpark(applier);
+        }
+        if (closed) {
+            awaitFinalDrain(ticket);
+        }
+    }
+
+    // close() ran while this command was being claimed: the final drain covers every ticket handed
+    // out before the applier saw closed, so wait for it and fail if this one was past that point.
+    private void awaitFinalDrain(long ticket) {
+        boolean interrupted = false;
+        while (applier.isAlive()) {
+            try {
+                applier.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+        if (applied.get() <= ticket) {
+            throw new IllegalStateException("Pipeline closed before the command was applied");
+        }
+    }
+
+    /**
+     * Block until every command submitted before this call has been applied to the structure.
+     */
+    public void flush() {
+        long target = tail.get();
+        while (applied.get() < target) {
+            checkFailure();
+            if (!applier.isAlive()) {
+                throw new IllegalStateException("Applier thread has stopped");
+            }
+            LockSupport.unpark(applier);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Flush, then run the query while the applier is paused, so it sees this thread's writes.
+     */
+    public <R> R read(Supplier<R> query) {
+        flush();
+        synchronized (applyLock) {
+            return query.get();
+        }
+    }
+
+    /**
+     * Number of commands accepted so far.
+     */
+    public long submitted() {
+        return tail.get();
+    }
+
+    /**
+     * Flush pending commands and stop the applier thread. Call once producers have stopped submitting:
+     * a submit that races close() may throw IllegalStateException instead of being applied.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            LockSupport.unpark(applier);
+            try {
+                applier.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // --- Applier side ---
+
+    private void applyLoop() {
+        try {
+            while (!closed) {
+                if (drainBatch() == 0) {
+                    sleeping = true;
+                    // Re-check after announcing sleep: a producer that published before seeing
+                    // sleeping == true did not unpark us.
+                    if (!closed && sequence.get((int) head & mask) != head + 1) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                }
+            }
+            // Apply every ticket handed out before close was seen. Producers that claimed one have
+            // already passed their closed check and will publish it shortly; later ones throw.
+            long end = tail.get();
+            while (head < end) {
+                if (drainBatch() == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        } catch (Throwable t) {
+            failure = t; // reported to producers and flush() instead of dying silently
+        }
+    }
+
+    /**
+     * Take up to batchSize published commands, merge duplicates and apply them. Returns commands taken.
+     */
+    private int drainBatch() {
+        if (++epoch == 0) { // epoch wrapped: stale stamps could alias, so clear them
+            Arrays.fill(epochs, 0);
+            epoch = 1;
+        }
+        int distinct = 0;
+        int taken = 0;
+        while (taken < batchSize) {
+            int slot = (int) head & mask;
+            if (sequence.get(slot) != head + 1) break; // not yet published
+            int l = left[slot];
+            int r = right[slot];
+            double delta = deltas[slot];
+            sequence.set(slot, head + mask + 1); // hand the slot back to producers
+            head++;
+            taken++;
+
+            long key = ((long) l << 32) | (r & 0xFFFFFFFFL);
+            int pos = (int) (mix(key) & (keys.length - 1));
+            while (epochs[pos] == epoch && keys[pos] != key) {
+                pos = (pos + 1) & (keys.length - 1);
+            }
+            if (epochs[pos] == epoch) {
+                sums[pos] += delta;
+            } else {
+                epochs[pos] = epoch;
+                keys[pos] = key;
+                sums[pos] = delta;
+                used[distinct++] = pos;
+            }
+        }
+        if (taken == 0) return 0;
+
+        synchronized (applyLock) {
+            for (int i = 0; i < distinct; i++) {
+                int pos = used[i];
+                int l = (int) (keys[pos] >> 32);
+                int r = (int) keys[pos];
+                if (l == r) {
+                    target.add(l, sums[pos]);
+                } else {
+                    target.rangeAdd(l, r, sums[pos]);
+                }
+            }
+        }
+        applied.set(head);
+        return taken;
+    }
+
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 32);
+    }
+}
@@ -1,7 +1,9 @@
 package utils;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Random;
 import java.util.Map;
 import java.util.HashMap;
@@ -25,6 +27,46 @@ public class DatasetGenerator {
         return generateUniformRandom(size, 0, 1000);
     }
 
+    /**
+     * Same values as generateUniformRandom, stored unboxed: 8 bytes per element instead of ~24.
+     */
+    public double[] generateUniformRandomArray(int size, double minVal, double maxVal) {
+        double[] data = new double[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = minVal + (maxVal - minVal) * random.nextDouble();
+        }
+        return data;
+    }
+
+    public double[] generateUniformRandomArray(int size) {
+        return generateUniformRandomArray(size, 0, 1000);
+    }
+
+    /**
+     * Read-only List view of a double[], for the List-based builders without a boxed copy.
+     */
+    public static List<Double> asList(double[] values) {
+        return new DoubleArrayList(values);
+    }
+
+    private static final class DoubleArrayList extends AbstractList<Double> implements RandomAccess {
+        private final double[] values;
+
+        DoubleArrayList(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
     /**
      * Generates a list of queries as a Map: {operation: String, params: List<Double>}
      */
@@ -84,5 +126,20 @@ public class DatasetGenerator {
         return queries;
     }
 
+    /**
+     * Generates a batch of range queries as two parallel arrays: {l[], r[]} with l[i] <= r[i].
+     */
+    public int[][] generateRangeQueryBatch(int arraySize, int numQueries) {
+        int[] l = new int[numQueries];
+        int[] r = new int[numQueries];
+        for (int i = 0; i < numQueries; i++) {
+            int a = random.nextInt(arraySize);
+            int b = random.nextInt(arraySize);
+            l[i] = Math.min(a, b);
+            r[i] = Math.max(a, b);
+        }
+        return new int[][]{l, r};
+    }
+
     // Omitted save/load methods as Java memory/file handling is different and less crucial for core logic
 }
\ No newline at end of file
@@ -0,0 +1,610 @@
+package utils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Configurable parameter sweep over array size, query count, workload mix and structure set.
+ * Writes CSV/JSON results, fits empirical scaling exponents and gates against a stored baseline.
+ *
+ * Exit codes: 0 = ok, 1 = regression against baseline, 2 = anything else (bad arguments, I/O
+ * failure, malformed baseline, out of memory), so a crash is never mistaken for a regression.
+ */
+public class ExperimentRunner {
+
+    private static final String CSV_HEADER =
+            "structure,n,queries,mix,build_ms,memory_bytes,point_update_ns,range_query_ns,range_update_ns,"
+            + "build_ms_spread,point_update_ns_spread,range_query_ns_spread,range_update_ns_spread";
+    private static final int CSV_COLUMNS = 13;
+    private static final String[] METRICS = {"build_ms", "point_update_ns", "range_query_ns", "range_update_ns"};
+    private static final int WARMUP_RUNS = 2; // untimed runs of each configuration before its repeats
+
+    // Peak heap per element while building each structure, in bytes, on top of the 8 bytes of input data.
+    private static final Map<String, Integer> BYTES_PER_ELEMENT = new LinkedHashMap<>();
+    static {
+        BYTES_PER_ELEMENT.put("SegmentTree", 64);       // tree + lazy, up to 4N doubles each
+        BYTES_PER_ELEMENT.put("FenwickTree", 8);
+        BYTES_PER_ELEMENT.put("RangeOptimizedBIT", 32); // two trees, the difference array and the rebuilt tree1
+        BYTES_PER_ELEMENT.put("BAryFenwickTree", 10);
+        BYTES_PER_ELEMENT.put("BAryFenwickTree16", 9);
+    }
+
+    /**
+     * Command-line options; every field has a default so the runner works without arguments.
+     */
+    public static class Config {
+        public int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+        public int[] queryCounts = {10_000};
+        public String[] mixes = {"mixed"};
+        public String[] structures;
+        public int repeats = 3;
+        public int forks = 3; // separate JVMs per sweep; 0 = measure in this JVM
+        public String csvPath;
+        public String jsonPath;
+        public String baselinePath;
+        public double maxSlowdown = 0.25;
+        public double noiseFactor = 1.0; // slowdowns within this many measured spreads are noise
+
+        public static Config parse(String[] args) {
+            Config config = new Config();
+            config.structures = StructureOps.registry().keySet().toArray(new String[0]);
+            for (int i = 0; i < args.length; i++) {
+                String flag = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + flag);
+                }
+                String value = args[++i];
+                switch (flag) {
+                    case "--sizes": config.sizes = parseInts(value); break;
+                    case "--queries": config.queryCounts = parseInts(value); break;
+                    case "--mix": config.mixes = value.split(","); break;
+                    case "--structures": config.structures = value.split(","); break;
+                    case "--repeats": config.repeats = Integer.parseInt(value); break;
+                    case "--forks": config.forks = Integer.parseInt(value); break;
+                    case "--csv": config.csvPath = value; break;
+                    case "--json": config.jsonPath = value; break;
+                    case "--baseline": config.baselinePath = value; break;
+                    case "--max-slowdown": config.maxSlowdown = Double.parseDouble(value); break;
+                    case "--noise-factor": config.noiseFactor = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + flag);
+                }
+            }
+            for (String name : config.structures) {
+                if (!StructureOps.registry().containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown structure: " + name);
+                }
+            }
+            for (String mix : config.mixes) {
+                if (!Arrays.asList("mixed", "point_only", "range_only").contains(mix)) {
+                    throw new IllegalArgumentException("Unknown mix: " + mix);
+                }
+            }
+            if (config.repeats < 1) {
+                throw new IllegalArgumentException("--repeats must be at least 1");
+            }
+            if (config.forks < 0) {
+                throw new IllegalArgumentException("--forks must not be negative");
+            }
+            if (config.noiseFactor < 0) {
+                throw new IllegalArgumentException("--noise-factor must not be negative");
+            }
+            return config;
+        }
+
+        // Accepts plain or scientific notation, e.g. "1000,1e6".
+        private static int[] parseInts(String value) {
+            String[] parts = value.split(",");
+            int[] result = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                double parsed = Double.parseDouble(parts[i].trim());
+                if (parsed < 1 || parsed > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Out of range: " + parts[i]);
+                }
+                result[i] = (int) parsed;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * One row of the sweep: the fastest value of each metric over all repeats and forks, and how far
+     * apart the independent measurements behind it were (the noise estimate the gate uses).
+     */
+    public static class Result {
+        public final String structure;
+        public final int n;
+        public final int queries;
+        public final String mix;
+        public final long memoryBytes;
+        public final Map<String, Double> metrics; // e.g. "range_query_ns" -> value, absent when unsupported
+        public final Map<String, Double> spreads; // metric -> max - min across forks (or repeats without forks)
+
+        public Result(String structure, int n, int queries, String mix, long memoryBytes,
+                      Map<String, Double> metrics, Map<String, Double> spreads) {
+            this.structure = structure;
+            this.n = n;
+            this.queries = queries;
+            this.mix = mix;
+            this.memoryBytes = memoryBytes;
+            this.metrics = metrics;
+            this.spreads = spreads;
+        }
+
+        String key() {
+            return structure + "|" + n + "|" + queries + "|" + mix;
+        }
+    }
+
+    public static void main(String[] args) {
+        int exit;
+        try {
+            exit = run(args);
+        } catch (RuntimeException | Error e) {
+            e.printStackTrace();
+            exit = 2; // an uncaught exception would exit with 1, which means "regression"
+        }
+        System.exit(exit);
+    }
+
+    public static int run(String[] args) {
+        Config config;
+        try {
+            config = Config.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            return 2;
+        }
+
+        List<Result> results;
+        try {
+            results = config.forks > 0 ? sweepForked(config) : sweep(config);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 2;
+        } catch (OutOfMemoryError e) {
+            System.err.printf("Error: out of memory (max heap %,d MB); %s\n",
+                    Runtime.getRuntime().maxMemory() >> 20, heapAdvice(config));
+            return 2;
+        }
+        printTable(results);
+
+        Map<String, Double> exponents = fitExponents(results);
+        printExponents(exponents);
+
+        try {
+            if (config.csvPath != null) writeCsv(results, Paths.get(config.csvPath));
+            if (config.jsonPath != null) writeJson(results, exponents, Paths.get(config.jsonPath));
+            if (config.baselinePath != null) {
+                List<Result> baseline = readCsv(Paths.get(config.baselinePath));
+                List<Result> unmatched = unmatchedBaselineRows(results, baseline);
+                for (Result r : unmatched) {
+                    System.err.printf("Warning: baseline row %s N=%d Q=%d mix=%s is not in this run%n",
+                            r.structure, r.n, r.queries, r.mix);
+                }
+                if (unmatched.size() == baseline.size()) {
+                    // Nothing was compared, so "no regressions" would be meaningless
+                    System.err.println("Error: no configuration in this run matches baseline " + config.baselinePath);
+                    return 2;
+                }
+                List<String> regressions = compareToBaseline(results, baseline, config);
+                if (!regressions.isEmpty()) {
+                    System.out.printf("\nREGRESSION: %d metric(s) slower than baseline by more than %.0f%%\n",
+                            regressions.size(), config.maxSlowdown * 100);
+                    regressions.forEach(line -> System.out.println("   " + line));
+                    return 1;
+                }
+                System.out.println("\nNo regressions against baseline " + config.baselinePath);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 2;
+        }
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp out utils.ExperimentRunner [options]");
+        System.err.println("  --sizes 1e3,1e4,...        array sizes N to sweep");
+        System.err.println("  --queries 1000,...         query counts per run");
+        System.err.println("  --mix mixed,point_only,range_only");
+        System.err.println("  --structures SegmentTree,FenwickTree,...");
+        System.err.println("  --repeats 3                runs per configuration and fork (fastest is reported)");
+        System.err.println("  --forks 3                  fresh JVMs per configuration; their spread is its noise (0 = in-process)");
+        System.err.println("  --csv file / --json file   machine-readable output");
+        System.err.println("  --baseline file.csv        compare against a previous --csv output");
+        System.err.println("  --max-slowdown 0.25        allowed slowdown over baseline + noise before exiting with 1");
+        System.err.println("  --noise-factor 1.0         baseline spreads between forks counted as noise");
+        System.err.println("Heap: 8 bytes per element for the data plus, while building, SegmentTree 64,");
+        System.err.println("  RangeOptimizedBIT 32, BAryFenwickTree 10, FenwickTree 8 bytes per element. Give");
+        System.err.println("  -Xmx about 1.5x that: --sizes 1e8 needs -Xmx3g for FenwickTree, -Xmx11g with");
+        System.err.println("  SegmentTree. Running out of memory exits with 2.");
+    }
+
+    /**
+     * Rough peak heap for one configuration at size n: the input data plus the largest structure.
+     */
+    static long estimateHeapBytes(int n, String[] structures) {
+        int perElement = 0;
+        for (String name : structures) {
+            perElement = Math.max(perElement, BYTES_PER_ELEMENT.getOrDefault(name, 64));
+        }
+        return (long) n * (8 + perElement);
+    }
+
+    private static String heapAdvice(Config config) {
+        int largest = 0;
+        for (int n : config.sizes) largest = Math.max(largest, n);
+        long needed = estimateHeapBytes(largest, config.structures);
+        // The big arrays live in the old generation, which is only part of the heap.
+        long suggestedGb = (needed * 3 / 2 + (1L << 30) - 1) >> 30;
+        return String.format("N=%,d needs about %,d MB; rerun with -Xmx%dg or smaller --sizes",
+                largest, needed >> 20, suggestedGb);
+    }
+
+    /**
+     * Runs every (N, mix, query count, structure) combination and returns one row each.
+     */
+    public static List<Result> sweep(Config config) {
+        PerformanceTester tester = new PerformanceTester();
+        Map<String, Function<List<Double>, StructureOps>> registry = StructureOps.registry();
+
+        List<Result> results = new ArrayList<>();
+        for (int n : config.sizes) {
+            DatasetGenerator generator = new DatasetGenerator();
+            List<Double> data = DatasetGenerator.asList(generator.generateUniformRandomArray(n));
+            for (String mix : config.mixes) {
+                for (int q : config.queryCounts) {
+                    List<Map<String, Object>> queries = generator.generateTestQueries(n, q, mix);
+                    for (String name : config.structures) {
+                        System.out.printf("   running %-20s N=%,d Q=%,d mix=%s\n", name, n, q, mix);
+                        // Warm up on this exact workload, so it is compiled for the profile it is measured with
+                        for (int i = 0; i < WARMUP_RUNS; i++) {
+                            tester.runWorkload(registry.get(name), data, queries);
+                        }
+                        List<PerformanceMetrics> runs = new ArrayList<>();
+                        for (int rep = 0; rep < config.repeats; rep++) {
+                            runs.add(tester.runWorkload(registry.get(name), data, queries));
+                        }
+                        results.add(summarize(name, n, q, mix, runs));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs every configuration once per fork, each in a fresh JVM, and keeps the fastest value of
+     * every metric plus the spread between forks. Each JVM makes its own inlining and compilation
+     * decisions: SegmentTree point updates, for one, settle at either ~125 or ~250 ns per JVM and
+     * stay there. Configurations sharing a JVM would also share call sites, so one workload's profile
+     * would shape another's compiled code. Repeats inside one JVM can average out neither.
+     *
+     * Forks run round-robin (fork 1 of every configuration, then fork 2, ...), so each configuration
+     * is sampled across the whole sweep rather than in one burst. On shared hosts memory-bound code
+     * speeds up and slows down by up to ~2x in phases lasting seconds; spreading the forks out lets
+     * the spread see those phases and the minimum catch a quiet one.
+     */
+    public static List<Result> sweepForked(Config config) throws IOException {
+        Map<String, List<Result>> byConfig = new LinkedHashMap<>();
+        for (int fork = 1; fork <= config.forks; fork++) {
+            for (int n : config.sizes) {
+                for (String mix : config.mixes) {
+                    for (int q : config.queryCounts) {
+                        for (String name : config.structures) {
+                            System.out.printf("   fork %d/%d %-20s N=%,d Q=%,d mix=%s\n",
+                                    fork, config.forks, name, n, q, mix);
+                            for (Result r : runFork(config, name, n, q, mix, fork)) {
+                                byConfig.computeIfAbsent(r.key(), k -> new ArrayList<>()).add(r);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (List<Result> forks : byConfig.values()) {
+            results.add(combineForks(forks));
+        }
+        return results;
+    }
+
+    private static List<Result> runFork(Config config, String structure, int n, int q, String mix, int fork)
+            throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Path csv = Files.createTempFile("experiment-fork", ".csv");
+        try {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments()); // e.g. -Xmx
+            command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"),
+                    ExperimentRunner.class.getName(),
+                    "--sizes", String.valueOf(n),
+                    "--queries", String.valueOf(q),
+                    "--mix", mix,
+                    "--structures", structure,
+                    "--repeats", String.valueOf(config.repeats),
+                    "--forks", "0",
+                    "--csv", csv.toString()));
+
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            int exit;
+            try {
+                exit = process.waitFor();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for fork " + fork);
+            }
+            if (exit != 0) {
+                throw new IOException(String.format("Fork %d of %s N=%d Q=%d mix=%s failed with exit code %d",
+                        fork, structure, n, q, mix, exit));
+            }
+            return readCsv(csv);
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    // Fastest value of each metric across forks, with max - min of the per-fork values as its spread.
+    // A single fork keeps its spread between repeats, which includes not-yet-compiled first runs.
+    private static Result combineForks(List<Result> forks) {
+        Result first = forks.get(0);
+        if (forks.size() == 1) return first;
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        Map<String, Double> spreads = new LinkedHashMap<>();
+        for (String metric : first.metrics.keySet()) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (Result r : forks) {
+                Double value = r.metrics.get(metric);
+                if (value == null) continue;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            metrics.put(metric, min);
+            spreads.put(metric, max - min);
+        }
+        return new Result(first.structure, first.n, first.queries, first.mix, first.memoryBytes, metrics, spreads);
+    }
+
+    private static Result summarize(String name, int n, int q, String mix, List<PerformanceMetrics> runs) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        Map<String, Double> spreads = new LinkedHashMap<>();
+        metrics.put("build_ms", fastest(runs, m -> m.buildTimeMs));
+        spreads.put("build_ms", spread(runs, m -> m.buildTimeMs));
+        for (String op : new String[]{"point_update", "range_query", "range_update"}) {
+            if (runs.get(0).operationTimesMs.containsKey(op)) {
+                Function<PerformanceMetrics, Double> nanos = m -> m.operationTimesMs.get(op) * 1_000_000.0;
+                metrics.put(op + "_ns", fastest(runs, nanos));
+                spreads.put(op + "_ns", spread(runs, nanos));
+            }
+        }
+        return new Result(name, n, q, mix, runs.get(0).memoryUsageBytes, metrics, spreads);
+    }
+
+    // Min-of-runs: interference (GC, scheduling) only ever makes a run slower.
+    private static double fastest(List<PerformanceMetrics> runs, Function<PerformanceMetrics, Double> metric) {
+        return runs.stream().mapToDouble(metric::apply).min().orElse(Double.NaN);
+    }
+
+    private static double spread(List<PerformanceMetrics> runs, Function<PerformanceMetrics, Double> metric) {
+        double max = runs.stream().mapToDouble(metric::apply).max().orElse(Double.NaN);
+        return max - fastest(runs, metric);
+    }
+
+    /**
+     * Least-squares slope of log(metric) against log(N) for every structure/mix/query-count/metric
+     * group with at least two sizes. About 1 means linear, about 0 means logarithmic or constant.
+     */
+    public static Map<String, Double> fitExponents(List<Result> results) {
+        Map<String, List<double[]>> points = new LinkedHashMap<>();
+        for (Result r : results) {
+            for (Map.Entry<String, Double> metric : r.metrics.entrySet()) {
+                if (metric.getValue() <= 0) continue;
+                String group = r.structure + "|" + r.queries + "|" + r.mix + "|" + metric.getKey();
+                points.computeIfAbsent(group, k -> new ArrayList<>())
+                        .add(new double[]{Math.log(r.n), Math.log(metric.getValue())});
+            }
+        }
+
+        Map<String, Double> exponents = new LinkedHashMap<>();
+        for (Map.Entry<String, List<double[]>> entry : points.entrySet()) {
+            List<double[]> xy = entry.getValue();
+            if (xy.size() < 2) continue;
+            double meanX = xy.stream().mapToDouble(p -> p[0]).average().orElse(0);
+            double meanY = xy.stream().mapToDouble(p -> p[1]).average().orElse(0);
+            double num = 0;
+            double den = 0;
+            for (double[] p : xy) {
+                num += (p[0] - meanX) * (p[1] - meanY);
+                den += (p[0] - meanX) * (p[0] - meanX);
+            }
+            if (den > 0) exponents.put(entry.getKey(), num / den);
+        }
+        return exponents;
+    }
+
+    /**
+     * Baseline rows with no configuration of the same structure, N, queries and mix in the current run.
+     */
+    public static List<Result> unmatchedBaselineRows(List<Result> current, List<Result> baseline) {
+        Set<String> keys = new HashSet<>();
+        for (Result r : current) keys.add(r.key());
+        List<Result> unmatched = new ArrayList<>();
+        for (Result r : baseline) {
+            if (!keys.contains(r.key())) unmatched.add(r);
+        }
+        return unmatched;
+    }
+
+    /**
+     * Returns one line per metric whose fastest value is slower by more than maxSlowdown than the top
+     * of the baseline's noise band: baseline + noiseFactor * the baseline's spread between forks.
+     * A steady metric is gated tightly even at a few ns; a bimodal one only fails if every fork lands
+     * clearly above the slowest baseline fork. The current run's spread does not matter: only its
+     * fastest fork is compared.
+     * Rows or metrics missing from either side are ignored here; run() warns about baseline rows the
+     * current sweep did not cover and exits with 2 when none match.
+     */
+    public static List<String> compareToBaseline(List<Result> current, List<Result> baseline, Config config) {
+        Map<String, Result> byKey = new LinkedHashMap<>();
+        for (Result r : baseline) byKey.put(r.key(), r);
+
+        List<String> regressions = new ArrayList<>();
+        for (Result r : current) {
+            Result base = byKey.get(r.key());
+            if (base == null) continue;
+            for (Map.Entry<String, Double> metric : r.metrics.entrySet()) {
+                Double before = base.metrics.get(metric.getKey());
+                if (before == null || before <= 0) continue;
+                double ratio = metric.getValue() / before;
+                double noise = base.spreads.getOrDefault(metric.getKey(), 0.0);
+                if (metric.getValue() > (before + config.noiseFactor * noise) * (1 + config.maxSlowdown)) {
+                    regressions.add(String.format(Locale.ROOT, "%s N=%d Q=%d mix=%s %s: %.3f -> %.3f (x%.2f, noise %.3f)",
+                            r.structure, r.n, r.queries, r.mix, metric.getKey(), before, metric.getValue(), ratio, noise));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private static void printTable(List<Result> results) {
+        System.out.println("\nExperiment Results (fastest of repeats and forks +- spread; per-operation times in ns)");
+        System.out.println("----------------------------------------------------------------------------------------------------------------------------------------");
+        System.out.printf("%-20s | %-11s | %-9s | %-10s | %-16s | %-16s | %-16s | %-16s\n",
+                "Data Structure", "N", "Queries", "Mix", "Build (ms)", "Point Upd", "Range Query", "Range Upd");
+        System.out.println("----------------------------------------------------------------------------------------------------------------------------------------");
+        for (Result r : results) {
+            System.out.printf("%-20s | %-11d | %-9d | %-10s | %-16s | %-16s | %-16s | %-16s\n",
+                    r.structure, r.n, r.queries, r.mix, formatMetric(r, "build_ms", "%.3f +- %.3f"),
+                    formatMetric(r, "point_update_ns", "%.1f +- %.1f"), formatMetric(r, "range_query_ns", "%.1f +- %.1f"),
+                    formatMetric(r, "range_update_ns", "%.1f +- %.1f"));
+        }
+        System.out.println("----------------------------------------------------------------------------------------------------------------------------------------");
+    }
+
+    private static String formatMetric(Result r, String metric, String format) {
+        Double value = r.metrics.get(metric);
+        return value == null ? "N/A" : String.format(format, value, r.spreads.getOrDefault(metric, 0.0));
+    }
+
+    private static void printExponents(Map<String, Double> exponents) {
+        if (exponents.isEmpty()) return;
+        System.out.println("\nEmpirical scaling exponents (metric ~ N^k)");
+        for (Map.Entry<String, Double> entry : exponents.entrySet()) {
+            System.out.printf("   %-60s k = %.3f\n", entry.getKey(), entry.getValue());
+        }
+    }
+
+    // --- CSV / JSON ---
+
+    public static void writeCsv(List<Result> results, Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println(CSV_HEADER);
+            for (Result r : results) {
+                StringBuilder line = new StringBuilder();
+                line.append(r.structure).append(',').append(r.n).append(',').append(r.queries).append(',')
+                        .append(r.mix).append(',');
+                line.append(csvValue(r.metrics.get("build_ms"))).append(',').append(r.memoryBytes);
+                for (String metric : new String[]{"point_update_ns", "range_query_ns", "range_update_ns"}) {
+                    line.append(',').append(csvValue(r.metrics.get(metric)));
+                }
+                for (String metric : METRICS) {
+                    line.append(',').append(csvValue(r.spreads.get(metric)));
+                }
+                out.println(line);
+            }
+        }
+    }
+
+    private static String csvValue(Double value) {
+        return value == null ? "" : String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    public static List<Result> readCsv(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        if (lines.isEmpty() || !lines.get(0).trim().equals(CSV_HEADER)) {
+            throw new IOException("Not an experiment CSV, or written by an older version (regenerate it): " + path);
+        }
+        List<Result> results = new ArrayList<>();
+        for (int lineNo = 2; lineNo <= lines.size(); lineNo++) {
+            String line = lines.get(lineNo - 1);
+            if (line.trim().isEmpty()) continue;
+            String[] cols = line.split(",", -1);
+            if (cols.length != CSV_COLUMNS) {
+                throw new IOException(path + ":" + lineNo + ": expected " + CSV_COLUMNS
+                        + " columns, found " + cols.length);
+            }
+            try {
+                Map<String, Double> metrics = new LinkedHashMap<>();
+                putIfPresent(metrics, "build_ms", cols[4]);
+                putIfPresent(metrics, "point_update_ns", cols[6]);
+                putIfPresent(metrics, "range_query_ns", cols[7]);
+                putIfPresent(metrics, "range_update_ns", cols[8]);
+                Map<String, Double> spreads = new LinkedHashMap<>();
+                for (int m = 0; m < METRICS.length; m++) {
+                    putIfPresent(spreads, METRICS[m], cols[9 + m]);
+                }
+                results.add(new Result(cols[0], Integer.parseInt(cols[1]), Integer.parseInt(cols[2]), cols[3],
+                        Long.parseLong(cols[5]), metrics, spreads));
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ":" + lineNo + ": " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    private static void putIfPresent(Map<String, Double> metrics, String name, String value) {
+        if (!value.isEmpty()) metrics.put(name, Double.parseDouble(value));
+    }
+
+    public static void writeJson(List<Result> results, Map<String, Double> exponents, Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("{");
+            out.println("  \"results\": [");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                StringBuilder obj = new StringBuilder();
+                obj.append(String.format(Locale.ROOT,
+                        "    {\"structure\": \"%s\", \"n\": %d, \"queries\": %d, \"mix\": \"%s\", \"memory_bytes\": %d",
+                        r.structure, r.n, r.queries, r.mix, r.memoryBytes));
+                for (Map.Entry<String, Double> metric : r.metrics.entrySet()) {
+                    obj.append(String.format(Locale.ROOT, ", \"%s\": %.6f", metric.getKey(), metric.getValue()));
+                }
+                for (Map.Entry<String, Double> spread : r.spreads.entrySet()) {
+                    obj.append(String.format(Locale.ROOT, ", \"%s_spread\": %.6f", spread.getKey(), spread.getValue()));
+                }
+                obj.append('}').append(i + 1 < results.size() ? "," : "");
+                out.println(obj);
+            }
+            out.println("  ],");
+            out.println("  \"scaling_exponents\": {");
+            int i = 0;
+            for (Map.Entry<String, Double> entry : exponents.entrySet()) {
+                out.printf(Locale.ROOT, "    \"%s\": %.4f%s\n", entry.getKey(), entry.getValue(),
+                        ++i < exponents.size() ? "," : "");
+            }
+            out.println("  }");
+            out.println("}");
+        }
+    }
+}
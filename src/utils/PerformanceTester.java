@@ -1,8 +1,11 @@
 package utils;
 
+import datastructures.BAryFenwickTree;
 import datastructures.FenwickTree;
 import datastructures.RangeOptimizedBIT;
 import datastructures.SegmentTree;
+import datastructures.SlidingWindowFenwick;
+import datastructures.UpdatePipeline;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
@@ -10,15 +13,21 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
-import java.util.function.BiFunction;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class PerformanceTester {
 
     private final Runtime runtime = Runtime.getRuntime();
+    private volatile double blackhole;
 
     /**
      * Measures time and memory for a single operation.
@@ -133,7 +142,7 @@ public class PerformanceTester {
     }
 
     /**
-     * Compares all three data structures.
+     * Compares all data structures.
      */
     public Map<String, PerformanceMetrics> compareDataStructures(List<Double> data, List<Map<String, Object>> queries) {
         Map<String, PerformanceMetrics> allResults = new HashMap<>();
@@ -171,9 +180,446 @@ public class PerformanceTester {
                 extractAvgTimes(robitOps)
         ));
 
+        // 4. B-ary Fenwick Tree (Only Point Update and Range Query)
+        Map<String, Object> bftBuild = benchmarkBuild(data, BAryFenwickTree::fromArray);
+        BAryFenwickTree bft = (BAryFenwickTree) bftBuild.get("instance");
+        Map<String, Map<String, Double>> bftOps = benchmarkOperations(bft, queries);
+
+        allResults.put("BAryFenwickTree", new PerformanceMetrics(
+                (double) bftBuild.get("time"),
+                (long) bftBuild.get("memory_usage"),
+                extractAvgTimes(bftOps)
+        ));
+
+        return allResults;
+    }
+
+    /**
+     * Builds one structure and replays the workload against it through direct calls.
+     * The build and each operation type (point updates, then range updates, then range queries)
+     * are timed in repeated loops via measureRepeated, so neither a sub-millisecond build nor
+     * per-operation timer overhead is measured as a single, half-compiled shot.
+     * Unsupported operations are skipped.
+     */
+    public PerformanceMetrics runWorkload(Function<List<Double>, StructureOps> builder, List<Double> data,
+                                          List<Map<String, Object>> queries) {
+        int pointCount = 0;
+        int rangeUpdateCount = 0;
+        int queryCount = 0;
+        for (Map<String, Object> query : queries) {
+            String op = (String) query.get("operation");
+            if ("point_update".equals(op)) pointCount++;
+            else if ("range_update".equals(op)) rangeUpdateCount++;
+            else if ("range_query".equals(op)) queryCount++;
+        }
+
+        int[] pointIdx = new int[pointCount];
+        double[] pointValue = new double[pointCount];
+        int[] updateL = new int[rangeUpdateCount];
+        int[] updateR = new int[rangeUpdateCount];
+        double[] updateValue = new double[rangeUpdateCount];
+        int[] queryL = new int[queryCount];
+        int[] queryR = new int[queryCount];
+        pointCount = rangeUpdateCount = queryCount = 0;
+        for (Map<String, Object> query : queries) {
+            String op = (String) query.get("operation");
+            List<Integer> params = parameters(query);
+            if ("point_update".equals(op)) {
+                pointIdx[pointCount] = params.get(0);
+                pointValue[pointCount++] = (double) query.get("value");
+            } else if ("range_update".equals(op)) {
+                updateL[rangeUpdateCount] = params.get(0);
+                updateR[rangeUpdateCount] = params.get(1);
+                updateValue[rangeUpdateCount++] = (double) query.get("value");
+            } else if ("range_query".equals(op)) {
+                queryL[queryCount] = params.get(0);
+                queryR[queryCount++] = params.get(1);
+            }
+        }
+
+        System.gc();
+        double buildTime = measureRepeated(() -> blackhole = builder.apply(data).getMemoryUsage(), 3);
+        StructureOps ds = builder.apply(data);
+
+        Map<String, Double> avgTimes = new HashMap<>();
+        int points = pointCount;
+        int rangeUpdates = rangeUpdateCount;
+        int rangeQueries = queryCount;
+
+        if (points > 0) {
+            avgTimes.put("point_update", measureRepeated(() -> {
+                for (int i = 0; i < points; i++) {
+                    ds.pointUpdate(pointIdx[i], pointValue[i]);
+                }
+            }, 3) / points);
+        }
+
+        if (rangeUpdates > 0 && ds.supportsRangeUpdate()) {
+            avgTimes.put("range_update", measureRepeated(() -> {
+                for (int i = 0; i < rangeUpdates; i++) {
+                    ds.rangeUpdate(updateL[i], updateR[i], updateValue[i]);
+                }
+            }, 3) / rangeUpdates);
+        }
+
+        if (rangeQueries > 0) {
+            avgTimes.put("range_query", measureRepeated(() -> {
+                double sink = 0;
+                for (int i = 0; i < rangeQueries; i++) {
+                    sink += ds.rangeQuery(queryL[i], queryR[i]);
+                }
+                blackhole = sink; // keeps query results observable so the JIT cannot drop them
+            }, 3) / rangeQueries);
+        }
+
+        return new PerformanceMetrics(buildTime, ds.getMemoryUsage(), avgTimes);
+    }
+
+    // Queries from DatasetGenerator always store their indices as a List<Integer>
+    @SuppressWarnings("unchecked")
+    private static List<Integer> parameters(Map<String, Object> query) {
+        return (List<Integer>) query.get("parameters");
+    }
+
+    /**
+     * Compares per-query range sums against both batch strategies for each batch size: walking the
+     * tree once per query and materializing a prefix array, forced regardless of batch size.
+     * The three are timed in alternating blocks, best of several (see measureInterleaved).
+     * Returns structure -> batch size -> {loop time (ms), tree-walk batch (ms), prefix batch (ms)}.
+     */
+    public Map<String, Map<Integer, double[]>> compareBatchQueries(List<Double> data, int[] batchSizes) {
+        DatasetGenerator generator = new DatasetGenerator();
+        SegmentTree st = new SegmentTree(data);
+        FenwickTree ft = FenwickTree.fromArray(data);
+        RangeOptimizedBIT robit = RangeOptimizedBIT.fromArray(data);
+
+        Map<String, RangeQuery> single = new LinkedHashMap<>();
+        single.put("SegmentTree", st::rangeQuery);
+        single.put("FenwickTree", ft::rangeSum);
+        single.put("RangeOptimizedBIT", robit::rangeSum);
+
+        Map<String, BatchQuery> batched = new LinkedHashMap<>();
+        batched.put("SegmentTree", st::rangeQueryBatch);
+        batched.put("FenwickTree", ft::rangeSumBatch);
+        batched.put("RangeOptimizedBIT", robit::rangeSumBatch);
+
+        Map<String, Map<Integer, double[]>> allResults = new LinkedHashMap<>();
+        for (int q : batchSizes) {
+            int[][] batch = generator.generateRangeQueryBatch(data.size(), q);
+            int[] l = batch[0];
+            int[] r = batch[1];
+
+            for (String name : single.keySet()) {
+                RangeQuery query = single.get(name);
+                BatchQuery batchQuery = batched.get(name);
+                double[] times = measureInterleaved(5,
+                        () -> blackhole = runLoop(query, l, r),
+                        () -> blackhole = batchQuery.query(l, r, false)[0],
+                        () -> blackhole = batchQuery.query(l, r, true)[0]);
+                allResults.computeIfAbsent(name, k -> new LinkedHashMap<>()).put(q, times);
+            }
+        }
+        return allResults;
+    }
+
+    private interface RangeQuery {
+        double query(int l, int r);
+    }
+
+    private interface BatchQuery {
+        double[] query(int[] l, int[] r, boolean materialize);
+    }
+
+    private double runLoop(RangeQuery query, int[] l, int[] r) {
+        double sink = 0;
+        for (int i = 0; i < l.length; i++) {
+            sink += query.query(l[i], r[i]);
+        }
+        return sink;
+    }
+
+    /**
+     * Time per run (ms) of a short operation: after warm-up, grow the repetition count until one
+     * block takes at least 10 ms, then return the best of 5 such blocks.
+     */
+    private double measureRepeated(Runnable operation) {
+        return measureRepeated(operation, 5);
+    }
+
+    private double measureRepeated(Runnable operation, int blocks) {
+        return measureInterleaved(blocks, operation)[0];
+    }
+
+    /**
+     * measureRepeated for several operations whose blocks alternate, so slow phases of a shared
+     * machine hit all of them alike and their times stay comparable. Returns ms per run of each.
+     */
+    private double[] measureInterleaved(int blocks, Runnable... operations) {
+        long[] reps = new long[operations.length];
+        for (int k = 0; k < operations.length; k++) {
+            for (int i = 0; i < 3; i++) {
+                operations[k].run();
+            }
+            reps[k] = 1;
+            while (timeBlock(operations[k], reps[k]) < 10_000_000L) {
+                reps[k] *= 2;
+            }
+        }
+        double[] best = new double[operations.length];
+        Arrays.fill(best, Double.MAX_VALUE);
+        for (int block = 0; block < blocks; block++) {
+            for (int k = 0; k < operations.length; k++) {
+                best[k] = Math.min(best[k], timeBlock(operations[k], reps[k]) / (double) reps[k]);
+            }
+        }
+        for (int k = 0; k < best.length; k++) {
+            best[k] /= 1_000_000.0;
+        }
+        return best;
+    }
+
+    private long timeBlock(Runnable operation, long reps) {
+        long startTime = System.nanoTime();
+        for (long i = 0; i < reps; i++) {
+            operation.run();
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Compares multi-threaded writers calling the structure directly (behind a lock, since the
+     * structures are not thread-safe) with the same writers submitting to an UpdatePipeline.
+     * Updates arrive in bursts on a small hot set so the pipeline has duplicates to merge.
+     * Throws IllegalStateException if the two paths leave different whole-array sums.
+     * Returns structure -> {"direct_ops_per_sec", "pipeline_ops_per_sec", "direct_latency_ns", "pipeline_latency_ns"}.
+     */
+    public Map<String, Map<String, Double>> compareUpdatePipeline(List<Double> data, int producers, int updatesPerProducer) {
+        int last = data.size() - 1;
+        Map<String, Supplier<PipelineSubject>> subjects = new LinkedHashMap<>();
+        subjects.put("SegmentTree", () -> {
+            SegmentTree st = new SegmentTree(data);
+            return new PipelineSubject(UpdatePipeline.target(st), () -> st.rangeQuery(0, last));
+        });
+        subjects.put("FenwickTree", () -> {
+            FenwickTree ft = FenwickTree.fromArray(data);
+            return new PipelineSubject(UpdatePipeline.target(ft), () -> ft.rangeSum(0, last));
+        });
+        subjects.put("RangeOptimizedBIT", () -> {
+            RangeOptimizedBIT robit = RangeOptimizedBIT.fromArray(data);
+            return new PipelineSubject(UpdatePipeline.target(robit), () -> robit.rangeSum(0, last));
+        });
+
+        Map<String, Map<String, Double>> allResults = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<PipelineSubject>> entry : subjects.entrySet()) {
+            boolean ranges = entry.getValue().get().target.supportsRangeAdd();
+            int[][][] workload = new int[producers][][];
+            for (int p = 0; p < producers; p++) {
+                workload[p] = generateHotUpdates(data.size(), updatesPerProducer, ranges, 42 + p);
+            }
+
+            // Warm-up run of each path, then the measured one
+            runDirect(entry.getValue().get(), workload);
+            runPipelined(entry.getValue().get(), workload);
+            double[] direct = runDirect(entry.getValue().get(), workload);
+            double[] pipelined = runPipelined(entry.getValue().get(), workload);
+
+            // Same updates, so both paths must end with the same array; a fast but wrong pipeline fails here.
+            double expected = direct[2];
+            double actual = pipelined[2];
+            if (Math.abs(actual - expected) > 1e-9 * Math.abs(expected) + 1e-6) {
+                throw new IllegalStateException(String.format(
+                        "%s: pipelined total %.6f does not match direct total %.6f",
+                        entry.getKey(), actual, expected));
+            }
+
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            metrics.put("direct_ops_per_sec", direct[0]);
+            metrics.put("pipeline_ops_per_sec", pipelined[0]);
+            metrics.put("direct_latency_ns", direct[1]);
+            metrics.put("pipeline_latency_ns", pipelined[1]);
+            allResults.put(entry.getKey(), metrics);
+        }
         return allResults;
     }
 
+    // {l[], r[]}: 90% of updates hit one of 64 hot indices/ranges, the rest are uniform.
+    private int[][] generateHotUpdates(int arraySize, int count, boolean ranges, long seed) {
+        Random random = new Random(seed);
+        int[] hotL = new int[64];
+        int[] hotR = new int[64];
+        for (int i = 0; i < hotL.length; i++) {
+            int a = random.nextInt(arraySize);
+            int b = ranges ? random.nextInt(arraySize) : a;
+            hotL[i] = Math.min(a, b);
+            hotR[i] = Math.max(a, b);
+        }
+        int[] l = new int[count];
+        int[] r = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(10) < 9) {
+                int h = random.nextInt(hotL.length);
+                l[i] = hotL[h];
+                r[i] = hotR[h];
+            } else {
+                int a = random.nextInt(arraySize);
+                int b = ranges ? random.nextInt(arraySize) : a;
+                l[i] = Math.min(a, b);
+                r[i] = Math.max(a, b);
+            }
+        }
+        return new int[][]{l, r};
+    }
+
+    // A structure behind an update target, plus a query for the sum of the whole array.
+    private static final class PipelineSubject {
+        final UpdatePipeline.Target target;
+        final DoubleSupplier total;
+
+        PipelineSubject(UpdatePipeline.Target target, DoubleSupplier total) {
+            this.target = target;
+            this.total = total;
+        }
+    }
+
+    // Returns {ops per second, mean producer latency in ns, whole-array sum afterwards}.
+    private double[] runDirect(PipelineSubject subject, int[][][] workload) {
+        UpdatePipeline.Target target = subject.target;
+        Object lock = new Object();
+        double[] stats = runProducers(workload, (l, r) -> {
+            synchronized (lock) {
+                if (l == r) target.add(l, 1.0); else target.rangeAdd(l, r, 1.0);
+            }
+        }, () -> {});
+        return new double[]{stats[0], stats[1], subject.total.getAsDouble()};
+    }
+
+    private double[] runPipelined(PipelineSubject subject, int[][][] workload) {
+        UpdatePipeline pipeline = new UpdatePipeline(subject.target);
+        try {
+            double[] stats = runProducers(workload, (l, r) -> pipeline.rangeAdd(l, r, 1.0), pipeline::flush);
+            return new double[]{stats[0], stats[1], pipeline.read(subject.total::getAsDouble)};
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    private interface UpdateSubmitter {
+        void submit(int l, int r);
+    }
+
+    private double[] runProducers(int[][][] workload, UpdateSubmitter submit, Runnable drain) {
+        int producers = workload.length;
+        CountDownLatch start = new CountDownLatch(1);
+        long[] latencyNanos = new long[producers];
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            threads[p] = new Thread(() -> {
+                int[] l = workload[id][0];
+                int[] r = workload[id][1];
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long total = 0;
+                for (int i = 0; i < l.length; i++) {
+                    long t0 = System.nanoTime();
+                    submit.submit(l[i], r[i]);
+                    total += System.nanoTime() - t0;
+                }
+                latencyNanos[id] = total;
+            });
+            threads[p].start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain.run(); // all updates applied before the clock stops
+        long elapsed = System.nanoTime() - startTime;
+
+        long ops = (long) producers * workload[0][0].length;
+        double latencySum = Arrays.stream(latencyNanos).sum();
+        return new double[]{ops / (elapsed / 1_000_000_000.0), latencySum / ops};
+    }
+
+    /**
+     * Streams samples through a SlidingWindowFenwick of the given window size, append-only and
+     * with a sum of the newest window/2 samples after every queryEvery appends. The first full
+     * window is not timed; after that, runs of `samples` appends of both kinds alternate (see
+     * measureInterleaved) and the best of each is kept.
+     * Returns {"ingest_per_sec", "ns_per_append", "ingest_with_queries_per_sec"}.
+     */
+    public Map<String, Double> benchmarkStreamingWindow(int window, int samples, int queryEvery) {
+        double[] stream = new double[1 << 16];
+        Random random = new Random(42);
+        for (int i = 0; i < stream.length; i++) {
+            stream[i] = random.nextDouble() * 1000;
+        }
+        int mask = stream.length - 1;
+
+        SlidingWindowFenwick sw = new SlidingWindowFenwick(window);
+        for (int i = 0; i < window; i++) {
+            sw.append(stream[i & mask]); // fill the window so every timed append also expires
+        }
+
+        int[] position = {window}; // the stream continues where the previous run stopped
+        Runnable appendOnly = () -> {
+            int pos = position[0];
+            for (int i = 0; i < samples; i++) {
+                sw.append(stream[pos++ & mask]);
+            }
+            position[0] = pos;
+        };
+        Runnable withQueries = () -> {
+            double sink = 0;
+            int pos = position[0];
+            int sinceQuery = 0;
+            for (int i = 0; i < samples; i++) {
+                sw.append(stream[pos++ & mask]);
+                if (++sinceQuery == queryEvery) {
+                    sink += sw.latestSum(window / 2);
+                    sinceQuery = 0;
+                }
+            }
+            position[0] = pos;
+            blackhole = sink;
+        };
+        double[] msPerRun = measureInterleaved(10, appendOnly, withQueries);
+
+        double nsPerAppend = msPerRun[0] * 1_000_000.0 / samples;
+        Map<String, Double> results = new LinkedHashMap<>();
+        results.put("ingest_per_sec", 1_000_000_000.0 / nsPerAppend);
+        results.put("ns_per_append", nsPerAppend);
+        results.put("ingest_with_queries_per_sec", samples / (msPerRun[1] / 1000.0));
+        return results;
+    }
+
+    /**
+     * Sanity check run before the streaming benchmark: after one huge sample has expired, window
+     * sums must be exact again. Throws IllegalStateException if rounding error outlives the window.
+     */
+    public void checkStreamingWindowRecovery() {
+        SlidingWindowFenwick sw = new SlidingWindowFenwick(8);
+        sw.append(1e16);
+        for (int i = 0; i < 100; i++) {
+            sw.append(1.0);
+        }
+        if (sw.windowSum() != 8.0 || sw.latestSum(3) != 3.0) {
+            throw new IllegalStateException(String.format(
+                    "SlidingWindowFenwick kept error from an expired outlier: windowSum %s (expected 8.0), latestSum(3) %s (expected 3.0)",
+                    sw.windowSum(), sw.latestSum(3)));
+        }
+    }
+
     private Map<String, Double> extractAvgTimes(Map<String, Map<String, Double>> ops) {
         Map<String, Double> avgTimes = new HashMap<>();
         for(Map.Entry<String, Map<String, Double>> entry : ops.entrySet()) {
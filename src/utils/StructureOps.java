@@ -0,0 +1,88 @@
+package utils;
+
+import datastructures.BAryFenwickTree;
+import datastructures.FenwickTree;
+import datastructures.RangeOptimizedBIT;
+import datastructures.SegmentTree;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Uniform view over a built range-query structure so benchmarks can call it directly
+ * instead of looking methods up by reflection on every operation.
+ */
+public interface StructureOps {
+
+    double rangeQuery(int l, int r);
+
+    void pointUpdate(int idx, double newValue);
+
+    /**
+     * Add value to every element in [l, r]. Only valid when supportsRangeUpdate() is true.
+     */
+    void rangeUpdate(int l, int r, double value);
+
+    boolean supportsRangeUpdate();
+
+    long getMemoryUsage();
+
+    /**
+     * All benchmarkable structures by name, in report order. Each entry builds from an array.
+     */
+    static Map<String, Function<List<Double>, StructureOps>> registry() {
+        Map<String, Function<List<Double>, StructureOps>> builders = new LinkedHashMap<>();
+        builders.put("SegmentTree", data -> of(new SegmentTree(data)));
+        builders.put("FenwickTree", data -> of(FenwickTree.fromArray(data)));
+        builders.put("RangeOptimizedBIT", data -> of(RangeOptimizedBIT.fromArray(data)));
+        builders.put("BAryFenwickTree", data -> of(BAryFenwickTree.fromArray(data)));
+        builders.put("BAryFenwickTree16", data -> of(BAryFenwickTree.fromArray(data, 16)));
+        return builders;
+    }
+
+    static StructureOps of(SegmentTree st) {
+        return new StructureOps() {
+            public double rangeQuery(int l, int r) { return st.rangeQuery(l, r); }
+            public void pointUpdate(int idx, double newValue) { st.pointUpdate(idx, newValue); }
+            public void rangeUpdate(int l, int r, double value) { st.rangeUpdate(l, r, value); }
+            public boolean supportsRangeUpdate() { return true; }
+            public long getMemoryUsage() { return st.getMemoryUsage(); }
+        };
+    }
+
+    static StructureOps of(FenwickTree ft) {
+        return new StructureOps() {
+            public double rangeQuery(int l, int r) { return ft.rangeSum(l, r); }
+            public void pointUpdate(int idx, double newValue) { ft.pointUpdate(idx, newValue); }
+            public void rangeUpdate(int l, int r, double value) {
+                throw new UnsupportedOperationException("FenwickTree does not support range updates");
+            }
+            public boolean supportsRangeUpdate() { return false; }
+            public long getMemoryUsage() { return ft.getMemoryUsage(); }
+        };
+    }
+
+    static StructureOps of(RangeOptimizedBIT robit) {
+        return new StructureOps() {
+            public double rangeQuery(int l, int r) { return robit.rangeSum(l, r); }
+            public void pointUpdate(int idx, double newValue) { robit.pointUpdate(idx, newValue); }
+            public void rangeUpdate(int l, int r, double value) { robit.rangeUpdate(l, r, value); }
+            public boolean supportsRangeUpdate() { return true; }
+            public long getMemoryUsage() { return robit.getMemoryUsage(); }
+        };
+    }
+
+    static StructureOps of(BAryFenwickTree bft) {
+        return new StructureOps() {
+            public double rangeQuery(int l, int r) { return bft.rangeSum(l, r); }
+            public void pointUpdate(int idx, double newValue) { bft.pointUpdate(idx, newValue); }
+            public void rangeUpdate(int l, int r, double value) {
+                throw new UnsupportedOperationException("BAryFenwickTree does not support range updates");
+            }
+            public boolean supportsRangeUpdate() { return false; }
+            public long getMemoryUsage() { return bft.getMemoryUsage(); }
+        };
+    }
+}